@@ -0,0 +1,117 @@
+#!/usr/bin/env bash
+#
+# Compares startup time and time-to-first-request of the current launch
+# (fat jar, default profile) against the fast-startup build
+# (prod profile + Flyway, Spring AOT, CDS archive).
+#
+# Usage: ./mvnw -Pfast-startup -DskipTests package && scripts/startup-benchmark.sh [runs]
+#
+# Both variants talk to the datasource configured in application.properties,
+# so run it from the same network location for every measurement. To measure
+# against a local PostgreSQL instead, export SPRING_DATASOURCE_URL,
+# SPRING_DATASOURCE_USERNAME and SPRING_DATASOURCE_PASSWORD before running.
+#
+# A run that does not answer within STARTUP_TIMEOUT_SECONDS (default 120) aborts
+# the benchmark, as does a PORT (default 8080) that is already in use.
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-8080}"
+STARTUP_TIMEOUT_SECONDS="${STARTUP_TIMEOUT_SECONDS:-120}"
+TARGET="$(dirname "$0")/../target"
+JAR_NAME="Banking-App-0.0.1-SNAPSHOT.jar"
+PROBE_URL="http://localhost:${PORT}/banking/findById/0"
+
+if [[ ! -f "${TARGET}/extracted/application.jsa" ]]; then
+    echo "CDS archive not found, build with: ./mvnw -Pfast-startup -DskipTests package" >&2
+    exit 1
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+port_in_use() {
+    (exec 3<>"/dev/tcp/localhost/${PORT}") 2>/dev/null
+}
+
+# Anything already listening would answer the probe and fake the measurement
+if port_in_use; then
+    echo "Port ${PORT} is already in use, stop that process or set PORT" >&2
+    exit 1
+fi
+
+# Starts the application with the given JVM arguments and prints
+# "<started-in seconds> <first request ms>" once a request has been answered.
+measure() {
+    local log
+    log="$(mktemp)"
+    local start
+    start="$(now_ms)"
+    local deadline=$(( start + STARTUP_TIMEOUT_SECONDS * 1000 ))
+
+    if port_in_use; then
+        echo "Port ${PORT} is still in use by a previous run" >&2
+        exit 1
+    fi
+
+    java -Dserver.port="${PORT}" "$@" > "${log}" 2>&1 &
+    local pid=$!
+
+    until curl -s -o /dev/null "${PROBE_URL}"; do
+        if ! kill -0 "${pid}" 2>/dev/null; then
+            echo "Application exited, see ${log}" >&2
+            exit 1
+        fi
+        if (( $(now_ms) > deadline )); then
+            kill "${pid}"
+            wait "${pid}" 2>/dev/null || true
+            echo "No answer within ${STARTUP_TIMEOUT_SECONDS}s, see ${log}" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    local first_request=$(( $(now_ms) - start ))
+
+    kill "${pid}"
+    wait "${pid}" 2>/dev/null || true
+
+    local started_in
+    started_in="$(grep -oE 'Started BankingAppApplication in [0-9.]+' "${log}" | grep -oE '[0-9.]+$')"
+    rm -f "${log}"
+
+    echo "${started_in} ${first_request}"
+}
+
+report() {
+    local label="$1"
+    shift
+    local total_started=0
+    local total_first=0
+
+    for ((i = 1; i <= RUNS; i++)); do
+        local started=""
+        local first=""
+        read -r started first < <(measure "$@") || true
+
+        # measure runs in a subshell, so a crashed run only shows up as missing values
+        if [[ -z "${started}" || -z "${first}" ]]; then
+            echo "${label}: run ${i} did not produce a measurement, aborting" >&2
+            exit 1
+        fi
+
+        total_started="$(awk -v a="${total_started}" -v b="${started}" 'BEGIN { print a + b }')"
+        total_first=$(( total_first + first ))
+    done
+
+    printf '%-14s started in %6.2fs   first request after %6dms   (avg of %d runs)\n' \
+        "${label}" "$(awk -v a="${total_started}" -v n="${RUNS}" 'BEGIN { print a / n }')" $(( total_first / RUNS )) "${RUNS}"
+}
+
+report "current" -jar "${TARGET}/${JAR_NAME}"
+report "fast-startup" \
+    -XX:SharedArchiveFile="${TARGET}/extracted/application.jsa" \
+    -Dspring.aot.enabled=true \
+    -Dspring.profiles.active=prod \
+    -jar "${TARGET}/extracted/${JAR_NAME}"
@@ -0,0 +1,77 @@
+package com.ag.banking.app.Banking.App.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * One leg of a cross-shard transfer, stored on the shard of the user it affects.
+ * The id is "transferId:leg", so each leg can be recorded only once per transfer;
+ * the saga relies on that to decide whether a credit was applied or aborted.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "transfer_ledger", indexes = {
+        @Index(name = "idx_transfer_ledger_status", columnList = "status, createdAt")
+})
+public class TransferLedgerEntry implements Persistable<String> {
+
+    public enum Leg { DEBIT, CREDIT }
+
+    public enum Status { PENDING, COMMITTED, COMPENSATED, ABORTED }
+
+    @Id
+    private String id;
+
+    private String transferId;
+
+    @Enumerated(EnumType.STRING)
+    private Leg leg;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private Long userId;
+    private Long counterpartyId;
+    private Integer amount;
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    // Entries are always inserted, never merged, so a duplicate leg fails on the primary key
+    @Transient
+    private boolean newEntry = true;
+
+    public TransferLedgerEntry(String transferId, Leg leg, Status status,
+                               Long userId, Long counterpartyId, Integer amount) {
+        this.id = idOf(transferId, leg);
+        this.transferId = transferId;
+        this.leg = leg;
+        this.status = status;
+        this.userId = userId;
+        this.counterpartyId = counterpartyId;
+        this.amount = amount;
+        this.createdAt = Instant.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    public static String idOf(String transferId, Leg leg) {
+        return transferId + ":" + leg;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntry;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntry = false;
+    }
+}
@@ -9,7 +9,11 @@ import lombok.*;
 @NoArgsConstructor
 @Getter
 @Setter
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_email", columnList = "email"),
+        @Index(name = "idx_users_account_number", columnList = "accountNumber"),
+        @Index(name = "idx_users_card_number", columnList = "cardNumber")
+})
 public class User {
 
     @Id
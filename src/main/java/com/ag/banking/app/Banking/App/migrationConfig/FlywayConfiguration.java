@@ -0,0 +1,25 @@
+package com.ag.banking.app.Banking.App.migrationConfig;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class FlywayConfiguration {
+
+    /**
+     * Runs the migrations, except during the CDS training run of the fast-startup build.
+     * Whether Flyway is enabled is fixed when the AOT build runs, so the training run
+     * skips migrating through this runtime flag instead of spring.flyway.enabled.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${banking.cds-training-run:false}") boolean trainingRun) {
+        return flyway -> {
+            if (!trainingRun) {
+                flyway.migrate();
+            }
+        };
+    }
+}
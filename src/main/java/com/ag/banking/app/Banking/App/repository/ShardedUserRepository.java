@@ -0,0 +1,131 @@
+package com.ag.banking.app.Banking.App.repository;
+
+import com.ag.banking.app.Banking.App.domain.User;
+import com.ag.banking.app.Banking.App.sharding.ShardContext;
+import com.ag.banking.app.Banking.App.sharding.ShardResolver;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Routes {@link UserRepository} calls to the shard that owns the data.
+ * Lookups by account number or id go to a single shard, everything else
+ * is sent to all shards in parallel and the results are gathered.
+ */
+@Component
+public class ShardedUserRepository {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardResolver shardResolver;
+
+    private final ExecutorService shardQueryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @return users of every shard
+     */
+    public List<User> findAll() {
+        return onAllShards(userRepository::findAll).stream()
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    /**
+     * @param id User ID
+     * @return User stored on the shard the id belongs to
+     */
+    public Optional<User> findById(Long id) {
+        return ShardContext.callOn(shardResolver.shardForUserId(id),
+                () -> userRepository.findById(id));
+    }
+
+    /**
+     * @param accountNumber Account number
+     * @return User stored on the shard of the account
+     */
+    public Optional<User> findByAccountNumber(String accountNumber) {
+        return ShardContext.callOn(shardResolver.shardForAccountNumber(accountNumber),
+                () -> userRepository.findByAccountNumber(accountNumber));
+    }
+
+    public boolean existsByAccountNumber(String accountNumber) {
+        return ShardContext.callOn(shardResolver.shardForAccountNumber(accountNumber),
+                () -> userRepository.existsByAccountNumber(accountNumber));
+    }
+
+    public boolean existsByCardNumber(String cardNumber) {
+        return onAllShards(() -> userRepository.existsByCardNumber(cardNumber)).contains(true);
+    }
+
+    public boolean existsByEmail(String email) {
+        return onAllShards(() -> userRepository.existsByEmail(email)).contains(true);
+    }
+
+    /**
+     * Saves a user. New users go to the shard of their account number,
+     * which then hands out an id belonging to that same shard.
+     *
+     * @param user User to save
+     * @return Saved user
+     */
+    public User save(User user) {
+        int shard = (user.getId() == null) ?
+                shardResolver.shardForAccountNumber(user.getAccountNumber()) :
+                shardResolver.shardForUserId(user.getId());
+        return ShardContext.callOn(shard, () -> userRepository.save(user));
+    }
+
+    public boolean moveBalanceToCard(Long id, Integer amount) {
+        return ShardContext.callOn(shardResolver.shardForUserId(id),
+                () -> userRepository.moveBalanceToCard(id, amount) == 1);
+    }
+
+    public boolean moveCardToBalance(Long id, Integer amount) {
+        return ShardContext.callOn(shardResolver.shardForUserId(id),
+                () -> userRepository.moveCardToBalance(id, amount) == 1);
+    }
+
+    public void delete(User user) {
+        ShardContext.callOn(shardResolver.shardForUserId(user.getId()), () -> {
+            userRepository.delete(user);
+            return null;
+        });
+    }
+
+    // Runs the query on every shard in parallel, results are in shard order
+    private <T> List<T> onAllShards(Supplier<T> query) {
+        if (shardResolver.getShardCount() == 1) {
+            return List.of(ShardContext.callOn(0, query));
+        }
+
+        List<CompletableFuture<T>> results = IntStream.range(0, shardResolver.getShardCount())
+                .mapToObj(shard -> CompletableFuture.supplyAsync(
+                        () -> ShardContext.callOn(shard, query), shardQueryExecutor))
+                .toList();
+
+        try {
+            return results.stream().map(CompletableFuture::join).toList();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        shardQueryExecutor.shutdown();
+    }
+}
@@ -0,0 +1,29 @@
+package com.ag.banking.app.Banking.App.repository;
+
+import com.ag.banking.app.Banking.App.domain.TransferLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TransferLedgerRepository extends JpaRepository<TransferLedgerEntry, String> {
+
+    //Finds the legs still waiting to be resolved, used by the transfer recovery
+    List<TransferLedgerEntry> findByLegAndStatusAndCreatedAtBefore(TransferLedgerEntry.Leg leg,
+                                                                   TransferLedgerEntry.Status status,
+                                                                   Instant cutoff);
+
+    /*
+    Moves an entry from one status to another only if it is still in the expected status.
+    Returns 0 when another resolution got there first.*/
+    @Modifying(clearAutomatically = true)
+    @Query("update TransferLedgerEntry t set t.status = :to, t.updatedAt = :now " +
+            "where t.id = :id and t.status = :from")
+    int transition(@Param("id") String id,
+                   @Param("from") TransferLedgerEntry.Status from,
+                   @Param("to") TransferLedgerEntry.Status to,
+                   @Param("now") Instant now);
+}
@@ -2,6 +2,12 @@ package com.ag.banking.app.Banking.App.repository;
 
 import com.ag.banking.app.Banking.App.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByAccountNumber(String accountNumber);
@@ -12,5 +18,34 @@ public interface UserRepository extends JpaRepository<User, Long> {
     one record whose email column matches the value you pass as a parameter..*/
     boolean existsByEmail(String email);
 
+    Optional<User> findByAccountNumber(String accountNumber);
+
+    /*
+    Subtracts the amount from the balance in a single statement, only if the balance covers it.
+    Returns the number of updated rows, 0 means insufficient balance or unknown user.*/
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update User u set u.balance = u.balance - :amount where u.id = :id and u.balance >= :amount")
+    int debitBalance(@Param("id") Long id, @Param("amount") Integer amount);
+
+    //Adds the amount to the balance in a single statement, returns 0 for an unknown user
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update User u set u.balance = u.balance + :amount where u.id = :id")
+    int creditBalance(@Param("id") Long id, @Param("amount") Integer amount);
+
+    //Moves money from the account balance to the card (withdrawal), returns 0 if the balance does not cover it
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update User u set u.balance = u.balance - :amount, u.cardBalance = u.cardBalance + :amount " +
+            "where u.id = :id and u.balance >= :amount")
+    int moveBalanceToCard(@Param("id") Long id, @Param("amount") Integer amount);
+
+    //Moves money from the card to the account balance (deposit), returns 0 if the card balance does not cover it
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update User u set u.balance = u.balance + :amount, u.cardBalance = u.cardBalance - :amount " +
+            "where u.id = :id and u.cardBalance >= :amount")
+    int moveCardToBalance(@Param("id") Long id, @Param("amount") Integer amount);
 
 }
@@ -133,16 +133,14 @@ public class UserRestController {
             return ResponseEntity.badRequest().body("Card not registered for this user");
         }
 
-        if (withdrawalAmount > userDB.getBalance()) {
+        // The balance is checked again atomically when the money is moved
+        if (withdrawalAmount > userDB.getBalance() ||
+                !userService.withdrawMoney(userDB.getId(), withdrawalAmount)) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).
                     body(Map.of("message", "Insufficient balance"));
         }
 
-        userDB.setBalance(userDB.getBalance() - withdrawalAmount);
-        userDB.setCardBalance(userDB.getCardBalance() + withdrawalAmount);
-        userService.withdrawMoney(userDB.getId(), userDB.getBalance(), userDB.getCardBalance());
-
-        return ResponseEntity.ok(userDB);
+        return ResponseEntity.ok(userService.findUserById(userId));
     }
 
     /**
@@ -181,16 +179,14 @@ public class UserRestController {
                     BAD_REQUEST).body(Map.of("message", "Invalid card information"));
         }
 
-        if (amount > userDb.getCardBalance()) {
+        // The card balance is checked again atomically when the money is moved
+        if (amount > userDb.getCardBalance() ||
+                !userService.depositMoney(userDb.getId(), amount)) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).
                     body(Map.of("message", "Insufficient card balance"));
         }
 
-        userDb.setBalance(userDb.getBalance() + amount);
-        userDb.setCardBalance(userDb.getCardBalance() - amount);
-        userService.depositMoney(userDb.getId(), userDb.getBalance(), userDb.getCardBalance());
-
-        return ResponseEntity.ok(userDb);
+        return ResponseEntity.ok(userService.findUserById(id));
     }
 
     /**
@@ -201,11 +197,10 @@ public class UserRestController {
      */
     @GetMapping("/findByAccountNumber/{accountNumber}")
     public ResponseEntity<?> findByAccountNumber(@PathVariable String accountNumber) {
-        return userService.listAllUsers().stream()
-                .filter(u -> accountNumber.equals(u.getAccountNumber()))
-                .findFirst()
-                .<ResponseEntity<?>>map(ResponseEntity::ok)
-                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found"));
+        User userFound = userService.findUserByAccountNumber(accountNumber);
+        return (userFound != null) ?
+                ResponseEntity.ok(userFound) :
+                ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
     }
 
     /**
@@ -249,27 +244,19 @@ public class UserRestController {
 
         }
 
-        Optional<User> recipientOpt = userService.listAllUsers().stream()
-                .filter(u -> accountNumber.equals(u.getAccountNumber()))
-                .findFirst();
+        User recipient = userService.findUserByAccountNumber(accountNumber);
 
-        if (recipientOpt.isEmpty()) {
+        if (recipient == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Invalid account number");
         }
 
-        User recipient = recipientOpt.get();
-
-        if (amount > currentUser.getBalance()) {
+        // The balance is checked again atomically when it is debited
+        if (amount > currentUser.getBalance() ||
+                !userService.sendMoney(currentUser.getId(), recipient.getId(), amount)) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).
                     body(Map.of("message", "Insufficient balance"));
         }
 
-        recipient.setBalance(recipient.getBalance() + amount);
-        currentUser.setBalance(currentUser.getBalance() - amount);
-
-        userService.updateUserBalance(currentUser.getId(), currentUser.getBalance());
-        userService.updateUserBalance(recipient.getId(), recipient.getBalance());
-
         return ResponseEntity.ok("Money sent successfully");
     }
 
@@ -0,0 +1,45 @@
+package com.ag.banking.app.Banking.App.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the shard the current thread is working against.
+ * {@link ShardRoutingDataSource} reads it when a connection is requested,
+ * so it must be set before a transaction is started.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return shard index bound to the current thread, or null if none
+     */
+    public static Integer currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    /**
+     * Runs an action with the given shard bound to the current thread,
+     * restoring the previous binding afterwards.
+     *
+     * @param shard  Shard index
+     * @param action Action to run
+     * @return Result of the action
+     */
+    public static <T> T callOn(int shard, Supplier<T> action) {
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.ag.banking.app.Banking.App.sharding;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps account numbers and user ids to shards.
+ * <p>
+ * A user lives on the shard picked by hashing its account number. User ids are
+ * interleaved across shards (shard k hands out ids k+1, k+1+N, k+1+2N, ...), so
+ * the shard of a user can also be derived from its id alone.
+ */
+@Component
+public class ShardResolver {
+
+    private final int shardCount;
+
+    public ShardResolver(ShardingProperties shardingProperties) {
+        this.shardCount = shardingProperties.getShardCount();
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * @param accountNumber Account number
+     * @return shard that stores the account
+     */
+    public int shardForAccountNumber(String accountNumber) {
+        return shardForAccountNumber(accountNumber, shardCount);
+    }
+
+    /**
+     * @param userId User ID
+     * @return shard that generated the id
+     */
+    public int shardForUserId(Long userId) {
+        return shardForUserId(userId, shardCount);
+    }
+
+    /**
+     * Same as {@link #shardForAccountNumber(String)}, for code running before the context is up.
+     */
+    public static int shardForAccountNumber(String accountNumber, int shardCount) {
+        return Math.floorMod(accountNumber.hashCode(), shardCount);
+    }
+
+    /**
+     * Same as {@link #shardForUserId(Long)}, for code running before the context is up.
+     */
+    public static int shardForUserId(long userId, int shardCount) {
+        return (int) Math.floorMod(userId - 1, (long) shardCount);
+    }
+}
@@ -0,0 +1,32 @@
+package com.ag.banking.app.Banking.App.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * DataSource that hands out connections of the shard bound in {@link ShardContext}.
+ * Without a bound shard it falls back to shard 0, which is where Hibernate
+ * reads its startup metadata.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.currentShard();
+    }
+
+    /**
+     * Closes the connection pools of every shard.
+     */
+    @Override
+    public void close() throws IOException {
+        for (DataSource shard : getResolvedDataSources().values()) {
+            if (shard instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.ag.banking.app.Banking.App.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wires the shard datasources when {@code banking.sharding.enabled=true}.
+ * Every shard is migrated with the Flyway scripts in db/migration, then once with
+ * db/sharding (own history table) to interleave its user ids as {@link ShardResolver} expects.
+ * Changing the number of shards afterwards is not supported and fails the startup.
+ * Existing rows are not moved: the first migration of a shard fails if it holds a user
+ * whose id or account number {@link ShardResolver} maps to another shard.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfiguration {
+
+    /**
+     * Schedules the transfer recovery, only needed with more than one shard.
+     */
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(prefix = "banking.sharding", name = "enabled", havingValue = "true")
+    static class SagaRecoveryScheduling {
+    }
+
+    /**
+     * Fails the startup when sharding is enabled but the shard datasource was not created.
+     * With Spring AOT (fast-startup build) the condition on {@link #dataSource} is evaluated
+     * at build time, so enabling sharding only at runtime would otherwise be ignored silently.
+     */
+    @Bean
+    public InitializingBean shardingSetupCheck(ShardingProperties shardingProperties, DataSource dataSource) {
+        return () -> {
+            if (shardingProperties.isEnabled() && !(dataSource instanceof ShardRoutingDataSource)) {
+                throw new IllegalStateException("banking.sharding.enabled=true but the shard datasource was not "
+                        + "created. AOT-processed builds must be built with sharding enabled.");
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "banking.sharding", name = "enabled", havingValue = "true")
+    public DataSource dataSource(ShardingProperties shardingProperties, Environment environment) {
+
+        // An open-in-view EntityManager holds one connection for the whole request,
+        // which would pin every query of the request to the first shard it touched
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            throw new IllegalStateException("banking.sharding requires spring.jpa.open-in-view=false");
+        }
+
+        List<ShardingProperties.Shard> shards = shardingProperties.getShards();
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("banking.sharding.shards must list at least one datasource");
+        }
+
+        // The CDS training run of the fast-startup build only refreshes the context and must not touch the shards
+        boolean trainingRun = environment.getProperty("banking.cds-training-run", Boolean.class, false);
+
+        Map<Object, Object> targetDataSources = new HashMap<>();
+
+        for (int shard = 0; shard < shards.size(); shard++) {
+            ShardingProperties.Shard settings = shards.get(shard);
+            DataSourceBuilder<HikariDataSource> builder = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(settings.getUrl())
+                    .username(settings.getUsername())
+                    .password(settings.getPassword());
+            // Without an explicit driver it is derived from the url
+            if (settings.getDriverClassName() != null) {
+                builder.driverClassName(settings.getDriverClassName());
+            }
+            HikariDataSource dataSource = builder.build();
+            configurePool(dataSource, shard, environment);
+
+            if (!trainingRun) {
+                migrate(dataSource, shard, shards.size());
+                checkShardLayout(dataSource, shard, shards.size());
+            }
+            targetDataSources.put(shard, dataSource);
+        }
+
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+        routingDataSource.setTargetDataSources(targetDataSources);
+        routingDataSource.setDefaultTargetDataSource(targetDataSources.get(0));
+        routingDataSource.afterPropertiesSet();
+        return routingDataSource;
+    }
+
+    // spring.datasource.hikari.* applies to every shard, banking.sharding.shards[n].hikari.* overrides it per shard
+    private void configurePool(HikariDataSource dataSource, int shard, Environment environment) {
+        Binder binder = Binder.get(environment);
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName("shard-" + shard);
+        binder.bind("banking.sharding.shards[" + shard + "].hikari", Bindable.ofInstance(dataSource));
+    }
+
+    private void migrate(DataSource shard, int shardIndex, int shardCount) {
+        Flyway.configure()
+                .dataSource(shard)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+
+        Flyway.configure()
+                .dataSource(shard)
+                .locations("classpath:db/sharding")
+                .table("flyway_sharding_history")
+                .placeholders(Map.of(
+                        "shard_index", String.valueOf(shardIndex),
+                        "shard_count", String.valueOf(shardCount)))
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+    }
+
+    // The interleaving is applied once, so the configured layout must still match it
+    private void checkShardLayout(DataSource shard, int shardIndex, int shardCount) {
+        Map<String, Object> layout = new JdbcTemplate(shard)
+                .queryForMap("SELECT shard_index, shard_count FROM shard_layout");
+        int recordedIndex = ((Number) layout.get("shard_index")).intValue();
+        int recordedCount = ((Number) layout.get("shard_count")).intValue();
+
+        if (recordedIndex != shardIndex || recordedCount != shardCount) {
+            throw new IllegalStateException("Shard " + shardIndex + " of " + shardCount
+                    + " was set up as shard " + recordedIndex + " of " + recordedCount);
+        }
+    }
+}
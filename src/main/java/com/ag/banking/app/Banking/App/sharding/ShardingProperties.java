@@ -0,0 +1,106 @@
+package com.ag.banking.app.Banking.App.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sharding settings bound from {@code banking.sharding.*}.
+ * When sharding is disabled the application uses the regular
+ * {@code spring.datasource} as its single shard.
+ */
+@ConfigurationProperties(prefix = "banking.sharding")
+public class ShardingProperties {
+
+    /**
+     * Whether users are spread across the configured shards
+     */
+    private boolean enabled;
+
+    /**
+     * Shard datasources, the position in the list is the shard index
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * How old a pending cross-shard transfer must be before recovery resolves it
+     */
+    private Duration sagaRecoveryAge = Duration.ofMinutes(5);
+
+    /**
+     * @return number of shards users are distributed over (1 when sharding is disabled)
+     */
+    public int getShardCount() {
+        return enabled ? shards.size() : 1;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public void setShards(List<Shard> shards) {
+        this.shards = shards;
+    }
+
+    public Duration getSagaRecoveryAge() {
+        return sagaRecoveryAge;
+    }
+
+    public void setSagaRecoveryAge(Duration sagaRecoveryAge) {
+        this.sagaRecoveryAge = sagaRecoveryAge;
+    }
+
+    /**
+     * Connection settings of a single shard. Its Hikari pool is configured from
+     * {@code spring.datasource.hikari.*}, overridden by {@code banking.sharding.shards[n].hikari.*}.
+     */
+    public static class Shard {
+
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public String getDriverClassName() {
+            return driverClassName;
+        }
+
+        public void setDriverClassName(String driverClassName) {
+            this.driverClassName = driverClassName;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.ag.banking.app.Banking.App.sharding;
+
+import com.ag.banking.app.Banking.App.domain.TransferLedgerEntry;
+import com.ag.banking.app.Banking.App.domain.TransferLedgerEntry.Leg;
+import com.ag.banking.app.Banking.App.domain.TransferLedgerEntry.Status;
+import com.ag.banking.app.Banking.App.repository.TransferLedgerRepository;
+import com.ag.banking.app.Banking.App.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Moves money between two users.
+ * <p>
+ * When both users live on the same shard the transfer is a single local transaction.
+ * Across shards it runs as a ledger-backed saga:
+ * <ol>
+ *     <li>sender shard: debit the sender and record a PENDING debit leg</li>
+ *     <li>recipient shard: record a COMMITTED credit leg and credit the recipient</li>
+ *     <li>sender shard: mark the debit leg COMMITTED</li>
+ * </ol>
+ * If step 2 fails, or the process dies before step 3, the transfer is resolved by trying
+ * to record an ABORTED credit leg on the recipient shard. Only one credit leg can exist
+ * per transfer, so either the abort wins and the sender is refunded, or the credit
+ * already happened and the debit is committed.
+ */
+@Component
+public class TransferSaga {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferSaga.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransferLedgerRepository ledgerRepository;
+
+    @Autowired
+    private ShardResolver shardResolver;
+
+    @Autowired
+    private ShardingProperties shardingProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Transfers money from one user to another.
+     *
+     * @param senderId    ID of the sending user
+     * @param recipientId ID of the receiving user
+     * @param amount      Amount to transfer
+     * @return false if the sender's balance does not cover the amount
+     */
+    public boolean transfer(Long senderId, Long recipientId, Integer amount) {
+        int senderShard = shardResolver.shardForUserId(senderId);
+        int recipientShard = shardResolver.shardForUserId(recipientId);
+
+        if (senderShard == recipientShard) {
+            return transferWithinShard(senderShard, senderId, recipientId, amount);
+        }
+
+        String transferId = UUID.randomUUID().toString();
+
+        boolean reserved = inShardTransaction(senderShard, () -> {
+            if (userRepository.debitBalance(senderId, amount) == 0) {
+                return false;
+            }
+            ledgerRepository.save(new TransferLedgerEntry(transferId, Leg.DEBIT, Status.PENDING,
+                    senderId, recipientId, amount));
+            return true;
+        });
+
+        if (!reserved) {
+            return false;
+        }
+
+        try {
+            inShardTransaction(recipientShard, () -> {
+                ledgerRepository.saveAndFlush(new TransferLedgerEntry(transferId, Leg.CREDIT, Status.COMMITTED,
+                        recipientId, senderId, amount));
+                if (userRepository.creditBalance(recipientId, amount) == 0) {
+                    throw new RuntimeException("User not found");
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            resolve(transferId, senderId, recipientId, amount);
+            throw new RuntimeException("Transfer could not be completed", e);
+        }
+
+        // The money has moved, so a failure here must not reach the client, who could retry
+        // and pay twice. The debit leg stays PENDING and recovery commits it.
+        try {
+            inShardTransaction(senderShard, () -> ledgerRepository.transition(
+                    TransferLedgerEntry.idOf(transferId, Leg.DEBIT), Status.PENDING, Status.COMMITTED, Instant.now()));
+        } catch (RuntimeException e) {
+            log.warn("Could not commit debit leg of transfer {}, left for recovery", transferId, e);
+        }
+        return true;
+    }
+
+    // Updates both rows in ascending id order, so opposing transfers between two users cannot deadlock
+    private boolean transferWithinShard(int shard, Long senderId, Long recipientId, Integer amount) {
+        boolean creditFirst = recipientId < senderId;
+
+        return ShardContext.callOn(shard, () -> new TransactionTemplate(transactionManager).execute(status -> {
+            if (creditFirst && userRepository.creditBalance(recipientId, amount) == 0) {
+                throw new RuntimeException("User not found");
+            }
+            if (userRepository.debitBalance(senderId, amount) == 0) {
+                status.setRollbackOnly();
+                return false;
+            }
+            if (!creditFirst && userRepository.creditBalance(recipientId, amount) == 0) {
+                throw new RuntimeException("User not found");
+            }
+            return true;
+        }));
+    }
+
+    /**
+     * Resolves cross-shard transfers left PENDING longer than
+     * {@code banking.sharding.saga-recovery-age}, e.g. after a crash.
+     */
+    @Scheduled(fixedDelayString = "${banking.sharding.saga-recovery-interval-ms:60000}")
+    public void recoverPendingTransfers() {
+        if (shardResolver.getShardCount() == 1) {
+            return;
+        }
+
+        Instant cutoff = Instant.now().minus(shardingProperties.getSagaRecoveryAge());
+
+        for (int shard = 0; shard < shardResolver.getShardCount(); shard++) {
+            List<TransferLedgerEntry> pending = ShardContext.callOn(shard, () ->
+                    ledgerRepository.findByLegAndStatusAndCreatedAtBefore(Leg.DEBIT, Status.PENDING, cutoff));
+
+            for (TransferLedgerEntry debit : pending) {
+                try {
+                    resolve(debit.getTransferId(), debit.getUserId(), debit.getCounterpartyId(), debit.getAmount());
+                } catch (RuntimeException e) {
+                    log.warn("Could not resolve transfer {}, will retry", debit.getTransferId(), e);
+                }
+            }
+        }
+    }
+
+    // Commits or compensates the debit leg depending on what happened on the recipient shard
+    private void resolve(String transferId, Long senderId, Long recipientId, Integer amount) {
+        boolean credited = creditWasApplied(transferId, recipientId, senderId, amount);
+        String debitId = TransferLedgerEntry.idOf(transferId, Leg.DEBIT);
+
+        inShardTransaction(shardResolver.shardForUserId(senderId), () -> {
+            if (credited) {
+                ledgerRepository.transition(debitId, Status.PENDING, Status.COMMITTED, Instant.now());
+            } else if (ledgerRepository.transition(debitId, Status.PENDING, Status.COMPENSATED, Instant.now()) == 1) {
+                userRepository.creditBalance(senderId, amount);
+            }
+            return null;
+        });
+    }
+
+    // Fences the credit leg with an ABORTED entry, or reports the credit leg that already exists
+    private boolean creditWasApplied(String transferId, Long recipientId, Long senderId, Integer amount) {
+        int recipientShard = shardResolver.shardForUserId(recipientId);
+        try {
+            inShardTransaction(recipientShard, () -> ledgerRepository.saveAndFlush(
+                    new TransferLedgerEntry(transferId, Leg.CREDIT, Status.ABORTED, recipientId, senderId, amount)));
+            return false;
+        } catch (DataIntegrityViolationException e) {
+            return ShardContext.callOn(recipientShard, () ->
+                            ledgerRepository.findById(TransferLedgerEntry.idOf(transferId, Leg.CREDIT)))
+                    .map(credit -> credit.getStatus() == Status.COMMITTED)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private <T> T inShardTransaction(int shard, Supplier<T> action) {
+        return ShardContext.callOn(shard, () ->
+                new TransactionTemplate(transactionManager).execute(status -> action.get()));
+    }
+}
@@ -17,16 +17,19 @@ public interface UserServiceI {
     //This method finds a specific user by his Id and returns it
     public User findUserById(Long Id);
 
+    //This method finds a specific user by his account number and returns it
+    public User findUserByAccountNumber(String accountNumber);
+
     //This method deletes an existing user from the data-base
     public void deleteUser(User user);
 
-    //This is the mothod used to send money to other users
-    public void updateUserBalance(Long userId, Integer newBalance);
+    //This method moves money from one user to another, returns false if the balance is insufficient
+    public boolean sendMoney(Long senderId, Long recipientId, Integer amount);
 
-    //This method updates the user balance when the user makes a withdrawal
-      public void withdrawMoney(Long userId, Integer newBalance, Integer newCardBalance);
+    //This method moves money from the account to the card, returns false if the balance is insufficient
+    public boolean withdrawMoney(Long userId, Integer amount);
 
-    //This method updates the user balance when the user makes a withdrawal
-    public void depositMoney(Long userId, Integer newBalance, Integer newCardBalance);
+    //This method moves money from the card to the account, returns false if the card balance is insufficient
+    public boolean depositMoney(Long userId, Integer amount);
 
 }
@@ -1,7 +1,8 @@
 package com.ag.banking.app.Banking.App.userService;
 
 import com.ag.banking.app.Banking.App.domain.User;
-import com.ag.banking.app.Banking.App.repository.UserRepository;
+import com.ag.banking.app.Banking.App.repository.ShardedUserRepository;
+import com.ag.banking.app.Banking.App.sharding.TransferSaga;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +19,8 @@ import java.util.Random;
  * - Creating new users with encrypted credentials
  * - Generating unique account and card numbers
  * - Managing balances (deposit, withdraw, transfer)
+ * Users are read and written through {@link ShardedUserRepository},
+ * which sends each call to the shard that owns the user.
  */
 @Service
 public class UserServiceIm implements UserServiceI {
@@ -26,7 +29,10 @@ public class UserServiceIm implements UserServiceI {
     private PasswordEncoder passwordEncoder;
 
     @Autowired
-    private UserRepository userRepository;
+    private ShardedUserRepository userRepository;
+
+    @Autowired
+    private TransferSaga transferSaga;
 
     private final Random random = new Random();
 
@@ -135,6 +141,18 @@ public class UserServiceIm implements UserServiceI {
                 findById(Id).orElse(null);
     }
 
+    /**
+     * Finds a user by account number.
+     *
+     * @param accountNumber Account number
+     * @return User object or null if not found
+     */
+    @Override
+    public User findUserByAccountNumber(String accountNumber) {
+        return userRepository.
+                findByAccountNumber(accountNumber).orElse(null);
+    }
+
     /**
      * Deletes a user from the database.
      *
@@ -146,48 +164,41 @@ public class UserServiceIm implements UserServiceI {
     }
 
     /**
-     * Updates the balance of a user.
+     * Transfers money between two users, possibly living on different shards.
      *
-     * @param userId     User ID
-     * @param newBalance New balance value
+     * @param senderId    ID of the sending user
+     * @param recipientId ID of the receiving user
+     * @param amount      Amount to transfer
+     * @return false if the sender's balance does not cover the amount
      */
     @Override
-    public void updateUserBalance(Long userId, Integer newBalance) {
-        User existingUser = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        existingUser.setBalance(newBalance);
-        userRepository.save(existingUser);
+    public boolean sendMoney(Long senderId, Long recipientId, Integer amount) {
+        return transferSaga.transfer(senderId, recipientId, amount);
     }
 
     /**
-     * Withdraws money by updating user balance and card balance.
+     * Withdraws money by moving it from the account balance to the card balance.
+     * Both balances change in a single update, so concurrent operations cannot overwrite each other.
      *
-     * @param userId         User ID
-     * @param newBalance     Updated account balance
-     * @param newCardBalance Updated card balance
+     * @param userId User ID
+     * @param amount Amount to withdraw
+     * @return false if the account balance does not cover the amount
      */
     @Override
-    public void withdrawMoney(Long userId, Integer newBalance, Integer newCardBalance) {
-        User existingUser = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        existingUser.setBalance(newBalance);
-        existingUser.setCardBalance(newCardBalance);
-        userRepository.save(existingUser);
+    public boolean withdrawMoney(Long userId, Integer amount) {
+        return userRepository.moveBalanceToCard(userId, amount);
     }
 
     /**
-     * Deposits money by updating user balance and card balance.
+     * Deposits money by moving it from the card balance to the account balance.
+     * Both balances change in a single update, so concurrent operations cannot overwrite each other.
      *
-     * @param userId         User ID
-     * @param newBalance     Updated account balance
-     * @param newCardBalance Updated card balance
+     * @param userId User ID
+     * @param amount Amount to deposit
+     * @return false if the card balance does not cover the amount
      */
     @Override
-    public void depositMoney(Long userId, Integer newBalance, Integer newCardBalance) {
-        User existingUser = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        existingUser.setBalance(newBalance);
-        existingUser.setCardBalance(newCardBalance);
-        userRepository.save(existingUser);
+    public boolean depositMoney(Long userId, Integer amount) {
+        return userRepository.moveCardToBalance(userId, amount);
     }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package db.sharding;
+
+import com.ag.banking.app.Banking.App.sharding.ShardResolver;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Makes a shard hand out user ids k+1, k+1+N, k+1+2N, ... (k = shard index, N = shard count),
+ * which is how ShardResolver maps an id back to its shard.
+ * <p>
+ * Runs once per shard, from ShardingConfiguration, while Flyway holds its migration lock,
+ * so instances starting in parallel cannot move the identity under each other. The
+ * layout is recorded in shard_layout so a later change of the shard count is detected.
+ * <p>
+ * Existing users are not moved. The migration fails if the shard holds a user that
+ * ShardResolver would look for on another shard, by id or by account number.
+ */
+public class V1__Interleave_user_ids extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Map<String, String> placeholders = context.getConfiguration().getPlaceholders();
+        int shardIndex = Integer.parseInt(placeholders.get("shard_index"));
+        int shardCount = Integer.parseInt(placeholders.get("shard_count"));
+
+        try (Statement statement = context.getConnection().createStatement()) {
+            checkUsersBelongToShard(statement, shardIndex, shardCount);
+
+            long maxId;
+            try (ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM users")) {
+                resultSet.next();
+                maxId = resultSet.getLong(1);
+            }
+
+            // First id above everything in use that belongs to this shard
+            long nextId = maxId + 1 + Math.floorMod(shardIndex - maxId, (long) shardCount);
+
+            statement.execute("ALTER TABLE users ALTER COLUMN id SET INCREMENT BY "
+                    + shardCount + " RESTART WITH " + nextId);
+
+            statement.execute("CREATE TABLE shard_layout (shard_index INTEGER NOT NULL, shard_count INTEGER NOT NULL)");
+            statement.execute("INSERT INTO shard_layout (shard_index, shard_count) VALUES ("
+                    + shardIndex + ", " + shardCount + ")");
+        }
+    }
+
+    // Users of a database that was used unsharded must be redistributed before sharding is enabled
+    private void checkUsersBelongToShard(Statement statement, int shardIndex, int shardCount) throws Exception {
+        long misplaced = 0;
+        Long firstMisplacedId = null;
+
+        try (ResultSet resultSet = statement.executeQuery("SELECT id, account_number FROM users ORDER BY id")) {
+            while (resultSet.next()) {
+                long id = resultSet.getLong(1);
+                String accountNumber = resultSet.getString(2);
+
+                if (ShardResolver.shardForUserId(id, shardCount) != shardIndex
+                        || accountNumber == null
+                        || ShardResolver.shardForAccountNumber(accountNumber, shardCount) != shardIndex) {
+                    misplaced++;
+                    if (firstMisplacedId == null) {
+                        firstMisplacedId = id;
+                    }
+                }
+            }
+        }
+
+        if (misplaced > 0) {
+            throw new IllegalStateException("Shard " + shardIndex + " of " + shardCount + " holds " + misplaced
+                    + " users (first id " + firstMisplacedId + ") that belong to another shard. "
+                    + "Redistribute existing users by account number and id before enabling sharding.");
+        }
+    }
+}
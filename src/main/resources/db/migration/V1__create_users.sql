@@ -0,0 +1,22 @@
+-- Users table as previously generated by spring.jpa.hibernate.ddl-auto=update.
+-- IF NOT EXISTS lets this run on databases that were created before the migrations.
+CREATE TABLE IF NOT EXISTS users (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    f_name                  VARCHAR(255),
+    l_name                  VARCHAR(255),
+    phone                   VARCHAR(255),
+    email                   VARCHAR(255),
+    password                VARCHAR(255),
+    account_number          VARCHAR(255),
+    balance                 INTEGER,
+    card_number             VARCHAR(255),
+    expiration_month        VARCHAR(255),
+    expiration_year         VARCHAR(255),
+    card_verification_value VARCHAR(255),
+    card_balance            INTEGER
+);
+
+-- Lookups done on sign-up, login, transfers and card operations
+CREATE INDEX IF NOT EXISTS idx_users_email ON users (email);
+CREATE INDEX IF NOT EXISTS idx_users_account_number ON users (account_number);
+CREATE INDEX IF NOT EXISTS idx_users_card_number ON users (card_number);
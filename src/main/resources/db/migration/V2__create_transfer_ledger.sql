@@ -0,0 +1,14 @@
+-- Legs of cross-shard transfers, one row per leg on the shard of the affected user
+CREATE TABLE IF NOT EXISTS transfer_ledger (
+    id              VARCHAR(255) PRIMARY KEY,
+    transfer_id     VARCHAR(255) NOT NULL,
+    leg             VARCHAR(16)  NOT NULL,
+    status          VARCHAR(16)  NOT NULL,
+    user_id         BIGINT       NOT NULL,
+    counterparty_id BIGINT       NOT NULL,
+    amount          INTEGER      NOT NULL,
+    created_at      TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at      TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_transfer_ledger_status ON transfer_ledger (status, created_at);
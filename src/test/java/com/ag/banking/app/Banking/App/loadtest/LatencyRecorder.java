@@ -0,0 +1,108 @@
+package com.ag.banking.app.Banking.App.loadtest;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects the latencies and outcomes of one kind of request.
+ */
+class LatencyRecorder {
+
+    enum Outcome {
+        /**
+         * 2xx response
+         */
+        OK,
+        /**
+         * 400 response, an expected business rejection such as insufficient balance
+         */
+        REJECTED,
+        /**
+         * Any other status or a failed request
+         */
+        ERROR
+    }
+
+    private long[] samples = new long[1024];
+    private int size;
+    private final long[] outcomes = new long[Outcome.values().length];
+
+    synchronized void record(long latencyNanos, Outcome outcome) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = latencyNanos;
+        outcomes[outcome.ordinal()]++;
+    }
+
+    synchronized long count() {
+        return size;
+    }
+
+    synchronized long count(Outcome outcome) {
+        return outcomes[outcome.ordinal()];
+    }
+
+    synchronized long[] samples() {
+        return Arrays.copyOf(samples, size);
+    }
+
+    synchronized Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", size);
+        summary.put("ok", count(Outcome.OK));
+        summary.put("rejected", count(Outcome.REJECTED));
+        summary.put("errors", count(Outcome.ERROR));
+        summary.put("latencyMs", latencySummary(samples()));
+        return summary;
+    }
+
+    /**
+     * @return latency percentiles over the samples of all recorders
+     */
+    static Map<String, Object> latencySummary(Collection<LatencyRecorder> recorders) {
+        return latencySummary(recorders.stream()
+                .flatMapToLong(recorder -> Arrays.stream(recorder.samples()))
+                .toArray());
+    }
+
+    /**
+     * @return 99th percentile in milliseconds, 0 without samples
+     */
+    static double p99Millis(Collection<LatencyRecorder> recorders) {
+        long[] sorted = recorders.stream()
+                .flatMapToLong(recorder -> Arrays.stream(recorder.samples()))
+                .sorted()
+                .toArray();
+        return percentileMillis(sorted, 0.99);
+    }
+
+    private static Map<String, Object> latencySummary(long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("mean", sorted.length == 0 ? 0.0 : round(Arrays.stream(sorted).average().orElse(0) / 1_000_000.0));
+        summary.put("p50", percentileMillis(sorted, 0.50));
+        summary.put("p90", percentileMillis(sorted, 0.90));
+        summary.put("p99", percentileMillis(sorted, 0.99));
+        summary.put("p999", percentileMillis(sorted, 0.999));
+        summary.put("max", sorted.length == 0 ? 0.0 : round(sorted[sorted.length - 1] / 1_000_000.0));
+        return summary;
+    }
+
+    // Nearest-rank percentile
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return round(sorted[Math.max(rank - 1, 0)] / 1_000_000.0);
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 100) / 100.0;
+    }
+}
@@ -0,0 +1,309 @@
+package com.ag.banking.app.Banking.App.loadtest;
+
+import com.ag.banking.app.Banking.App.BankingAppApplication;
+import com.ag.banking.app.Banking.App.domain.User;
+import com.ag.banking.app.Banking.App.repository.ShardedUserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Offline load test of the banking REST API.
+ * <p>
+ * Starts {@link BankingAppApplication} with the embedded profile, seeds users, sends a
+ * mix of login, lookup, deposit, withdraw and transfer requests at a fixed rate and
+ * reports throughput and latency percentiles as JSON. After the run it checks that no
+ * money was created or lost, so it can be used as a regression gate.
+ * <p>
+ * Requests are issued on a fixed schedule and latency is measured from the scheduled
+ * time, so time spent waiting for a free client counts against the server.
+ * <p>
+ * Run with: ./mvnw -Pload-test test [-Dload.rate=200 -Dload.durationSeconds=60 ...]
+ * Extra arguments passed to {@link #main} are forwarded to the application.
+ */
+public class LoadTestHarness {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final int INITIAL_BALANCE = 1000;
+    private static final int INITIAL_CARD_BALANCE = 1000;
+
+    private final LoadTestSettings settings;
+    private final String[] applicationArgs;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final List<User> users = new ArrayList<>();
+    private String baseUrl;
+
+    LoadTestHarness(LoadTestSettings settings, String... applicationArgs) {
+        this.settings = settings;
+        this.applicationArgs = applicationArgs;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestReport report = new LoadTestHarness(LoadTestSettings.fromSystemProperties(), args).run();
+        System.exit(report.isPassed() ? 0 : 1);
+    }
+
+    /**
+     * Runs the whole load test and writes the report to the configured path.
+     *
+     * @return Report of the run
+     */
+    LoadTestReport run() throws Exception {
+        if (settings.users < 2) {
+            throw new IllegalArgumentException("load.users must be at least 2 to send transfers");
+        }
+
+        List<String> args = new ArrayList<>(List.of("--server.port=0"));
+        args.addAll(List.of(applicationArgs));
+
+        LoadTestReport report = new LoadTestReport();
+        report.put("settings", describeSettings());
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankingAppApplication.class)
+                .profiles("embedded")
+                .run(args.toArray(String[]::new))) {
+
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/banking";
+            ShardedUserRepository userRepository = context.getBean(ShardedUserRepository.class);
+
+            seed(userRepository, context.getBean(PasswordEncoder.class));
+            long expectedTotal = totalMoney(userRepository.findAll());
+
+            drive(settings.warmup, null);
+
+            Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                recorders.put(operation, new LatencyRecorder());
+            }
+            long start = System.nanoTime();
+            drive(settings.duration, recorders);
+            double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            reportMeasurements(report, recorders, elapsedSeconds);
+            checkInvariants(report, userRepository.findAll(), expectedTotal);
+        }
+
+        String json = report.toJson();
+        System.out.println(json);
+        Files.createDirectories(settings.report.toAbsolutePath().getParent());
+        Files.writeString(settings.report, json);
+        return report;
+    }
+
+    // Seeds users directly through the repository, all sharing one password hash to skip N bcrypt rounds
+    private void seed(ShardedUserRepository userRepository, PasswordEncoder passwordEncoder) {
+        String encodedPassword = passwordEncoder.encode(PASSWORD);
+
+        for (int i = 0; i < settings.users; i++) {
+            User user = new User();
+            user.setfName("Load");
+            user.setlName("User" + i);
+            user.setPhone("5550000");
+            user.setEmail("load-user-" + i + "@example.com");
+            user.setPassword(encodedPassword);
+            user.setAccountNumber(String.valueOf(100000000 + i));
+            user.setCardNumber(String.format("4%015d", i));
+            user.setExpirationMonth("12");
+            user.setExpirationYear("2099");
+            user.setCardVerificationValue("123");
+            user.setBalance(INITIAL_BALANCE);
+            user.setCardBalance(INITIAL_CARD_BALANCE);
+            users.add(userRepository.save(user));
+        }
+    }
+
+    // Issues requests at the target rate for the given time, recording them unless recorders is null
+    private void drive(Duration duration, Map<Operation, LatencyRecorder> recorders) throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / settings.ratePerSecond;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        Semaphore clients = new Semaphore(settings.clients);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long scheduledAt = start + i * intervalNanos;
+                if (scheduledAt >= end) {
+                    break;
+                }
+                long wait;
+                while ((wait = scheduledAt - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                Operation operation = pickOperation();
+                clients.acquire();
+                executor.submit(() -> {
+                    try {
+                        LatencyRecorder.Outcome outcome = execute(operation);
+                        if (recorders != null) {
+                            recorders.get(operation).record(System.nanoTime() - scheduledAt, outcome);
+                        }
+                    } finally {
+                        clients.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private Operation pickOperation() {
+        int total = settings.mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Operation, Integer> entry : settings.mix.entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty request mix");
+    }
+
+    private LatencyRecorder.Outcome execute(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        User user = users.get(random.nextInt(users.size()));
+        int amount = 1 + random.nextInt(50);
+
+        String path = switch (operation) {
+            case LOGIN -> "/login/" + user.getEmail() + "/" + PASSWORD;
+            case LOOKUP -> random.nextBoolean() ?
+                    "/findById/" + user.getId() :
+                    "/findByAccountNumber/" + user.getAccountNumber();
+            case DEPOSIT -> "/depositFunds/" + user.getCardNumber() + "/" + user.getExpirationMonth() + "/" +
+                    user.getExpirationYear() + "/" + user.getCardVerificationValue() + "/" + amount + "/" + user.getId();
+            case WITHDRAW -> "/withdrawFunds/" + user.getCardNumber() + "/" + amount + "/" + user.getId();
+            case TRANSFER -> {
+                User recipient;
+                do {
+                    recipient = users.get(random.nextInt(users.size()));
+                } while (recipient == user);
+                yield "/sendMoney/" + recipient.getAccountNumber() + "/" + amount + "/" + user.getId();
+            }
+        };
+        String method = switch (operation) {
+            case LOGIN -> "POST";
+            case LOOKUP -> "GET";
+            case DEPOSIT, WITHDRAW, TRANSFER -> "PATCH";
+        };
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        try {
+            int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status / 100 == 2) {
+                return LatencyRecorder.Outcome.OK;
+            }
+            return status == 400 ? LatencyRecorder.Outcome.REJECTED : LatencyRecorder.Outcome.ERROR;
+        } catch (IOException e) {
+            return LatencyRecorder.Outcome.ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return LatencyRecorder.Outcome.ERROR;
+        }
+    }
+
+    private void reportMeasurements(LoadTestReport report, Map<Operation, LatencyRecorder> recorders,
+                                    double elapsedSeconds) {
+        long requests = recorders.values().stream().mapToLong(LatencyRecorder::count).sum();
+        long errors = recorders.values().stream().mapToLong(r -> r.count(LatencyRecorder.Outcome.ERROR)).sum();
+        double throughput = requests / elapsedSeconds;
+        double errorRate = requests == 0 ? 1.0 : (double) errors / requests;
+        double p99 = LatencyRecorder.p99Millis(recorders.values());
+
+        report.put("elapsedSeconds", round(elapsedSeconds));
+        report.put("requests", requests);
+        report.put("throughputPerSecond", round(throughput));
+        report.put("errorRate", errorRate);
+        report.put("latencyMs", LatencyRecorder.latencySummary(recorders.values()));
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        recorders.forEach((operation, recorder) ->
+                operations.put(operation.name().toLowerCase(Locale.ROOT), recorder.summary()));
+        report.put("operations", operations);
+
+        if (errorRate > settings.maxErrorRate) {
+            report.fail("Error rate " + errorRate + " is above " + settings.maxErrorRate);
+        }
+        if (p99 > settings.maxP99Millis) {
+            report.fail("p99 latency " + p99 + "ms is above " + settings.maxP99Millis + "ms");
+        }
+        if (throughput < settings.ratePerSecond * settings.minThroughputRatio) {
+            report.fail("Throughput " + round(throughput) + "/s is below " +
+                    settings.minThroughputRatio + " of the target " + settings.ratePerSecond + "/s");
+        }
+    }
+
+    // Deposits, withdrawals and transfers only move money, so the total must not change
+    private void checkInvariants(LoadTestReport report, List<User> usersAfterRun, long expectedTotal) {
+        long actualTotal = totalMoney(usersAfterRun);
+        long negativeBalances = usersAfterRun.stream()
+                .filter(u -> u.getBalance() < 0 || u.getCardBalance() < 0)
+                .count();
+
+        Map<String, Object> invariants = new LinkedHashMap<>();
+        invariants.put("users", usersAfterRun.size());
+        invariants.put("expectedTotalMoney", expectedTotal);
+        invariants.put("actualTotalMoney", actualTotal);
+        invariants.put("moneyConserved", actualTotal == expectedTotal);
+        invariants.put("negativeBalances", negativeBalances);
+        report.put("invariants", invariants);
+
+        if (usersAfterRun.size() != users.size()) {
+            report.fail("Expected " + users.size() + " users after the run, found " + usersAfterRun.size());
+        }
+        if (actualTotal != expectedTotal) {
+            report.fail("Money not conserved: expected " + expectedTotal + ", found " + actualTotal);
+        }
+        if (negativeBalances > 0) {
+            report.fail(negativeBalances + " users have a negative balance");
+        }
+    }
+
+    private Map<String, Object> describeSettings() {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("users", settings.users);
+        description.put("clients", settings.clients);
+        description.put("targetRatePerSecond", settings.ratePerSecond);
+        description.put("warmupSeconds", settings.warmup.toSeconds());
+        description.put("durationSeconds", settings.duration.toSeconds());
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        settings.mix.forEach((operation, weight) -> mix.put(operation.name().toLowerCase(Locale.ROOT), weight));
+        description.put("mix", mix);
+        description.put("applicationArgs", List.of(applicationArgs));
+        return description;
+    }
+
+    private static long totalMoney(List<User> users) {
+        return users.stream()
+                .mapToLong(u -> (long) u.getBalance() + u.getCardBalance())
+                .sum();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.ag.banking.app.Banking.App.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regression gate around {@link LoadTestHarness}, only enabled by the load-test Maven profile.
+ */
+@EnabledIfSystemProperty(named = "loadTest", matches = "true")
+class LoadTestRegressionTest {
+
+    @Test
+    void loadTestMeetsThresholdsAndConservesMoney() throws Exception {
+        LoadTestReport report = new LoadTestHarness(LoadTestSettings.fromSystemProperties()).run();
+
+        assertThat(report.getFailures()).isEmpty();
+    }
+}
@@ -0,0 +1,47 @@
+package com.ag.banking.app.Banking.App.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a load-test run: measurements, invariant checks and the
+ * regression-gate failures, written out as JSON.
+ */
+class LoadTestReport {
+
+    private final Map<String, Object> content = new LinkedHashMap<>();
+    private final List<String> failures = new ArrayList<>();
+
+    void put(String key, Object value) {
+        content.put(key, value);
+    }
+
+    void fail(String failure) {
+        failures.add(failure);
+    }
+
+    List<String> getFailures() {
+        return failures;
+    }
+
+    boolean isPassed() {
+        return failures.isEmpty();
+    }
+
+    String toJson() {
+        Map<String, Object> json = new LinkedHashMap<>(content);
+        json.put("passed", isPassed());
+        json.put("failures", failures);
+        try {
+            return new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write the load-test report", e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.ag.banking.app.Banking.App.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Load-test parameters, read from {@code load.*} system properties.
+ */
+class LoadTestSettings {
+
+    /**
+     * Number of users seeded before the run
+     */
+    int users = 500;
+
+    /**
+     * Maximum number of requests in flight at the same time
+     */
+    int clients = 64;
+
+    /**
+     * Target request rate per second
+     */
+    int ratePerSecond = 200;
+
+    Duration warmup = Duration.ofSeconds(10);
+    Duration duration = Duration.ofSeconds(60);
+
+    /**
+     * Relative weight of every operation in the request mix
+     */
+    Map<Operation, Integer> mix = new EnumMap<>(Map.of(
+            Operation.LOGIN, 10,
+            Operation.LOOKUP, 40,
+            Operation.DEPOSIT, 15,
+            Operation.WITHDRAW, 15,
+            Operation.TRANSFER, 20));
+
+    /**
+     * Regression gate: the run fails above this share of errored requests
+     */
+    double maxErrorRate = 0.01;
+
+    /**
+     * Regression gate: the run fails when the overall p99 latency exceeds this
+     */
+    long maxP99Millis = 1000;
+
+    /**
+     * Regression gate: the run fails below this share of the target rate
+     */
+    double minThroughputRatio = 0.9;
+
+    Path report = Path.of("target", "load-test-report.json");
+
+    static LoadTestSettings fromSystemProperties() {
+        LoadTestSettings settings = new LoadTestSettings();
+        settings.users = Integer.getInteger("load.users", settings.users);
+        settings.clients = Integer.getInteger("load.clients", settings.clients);
+        settings.ratePerSecond = Integer.getInteger("load.rate", settings.ratePerSecond);
+        settings.warmup = Duration.ofSeconds(Long.getLong("load.warmupSeconds", settings.warmup.toSeconds()));
+        settings.duration = Duration.ofSeconds(Long.getLong("load.durationSeconds", settings.duration.toSeconds()));
+        settings.maxErrorRate = Double.parseDouble(
+                System.getProperty("load.maxErrorRate", String.valueOf(settings.maxErrorRate)));
+        settings.maxP99Millis = Long.getLong("load.maxP99Millis", settings.maxP99Millis);
+        settings.minThroughputRatio = Double.parseDouble(
+                System.getProperty("load.minThroughputRatio", String.valueOf(settings.minThroughputRatio)));
+        settings.report = Path.of(System.getProperty("load.report", settings.report.toString()));
+
+        // e.g. -Dload.mix=login:10,lookup:40,deposit:15,withdraw:15,transfer:20
+        String mix = System.getProperty("load.mix");
+        if (mix != null) {
+            settings.mix.clear();
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.trim().split(":");
+                settings.mix.put(Operation.valueOf(parts[0].toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1]));
+            }
+        }
+        return settings;
+    }
+}
@@ -0,0 +1,12 @@
+package com.ag.banking.app.Banking.App.loadtest;
+
+/**
+ * Kinds of calls the load-test harness sends to the REST API.
+ */
+enum Operation {
+    LOGIN,
+    LOOKUP,
+    DEPOSIT,
+    WITHDRAW,
+    TRANSFER
+}
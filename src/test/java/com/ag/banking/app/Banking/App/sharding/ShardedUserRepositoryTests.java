@@ -0,0 +1,307 @@
+package com.ag.banking.app.Banking.App.sharding;
+
+import com.ag.banking.app.Banking.App.domain.TransferLedgerEntry;
+import com.ag.banking.app.Banking.App.domain.User;
+import com.ag.banking.app.Banking.App.repository.ShardedUserRepository;
+import com.ag.banking.app.Banking.App.repository.TransferLedgerRepository;
+import com.ag.banking.app.Banking.App.repository.UserRepository;
+import com.ag.banking.app.Banking.App.userService.UserServiceI;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+
+@SpringBootTest(properties = {
+        "banking.sharding.enabled=true",
+        "banking.sharding.shards[0].url=jdbc:h2:mem:shard-test-0;DB_CLOSE_DELAY=-1",
+        "banking.sharding.shards[1].url=jdbc:h2:mem:shard-test-1;DB_CLOSE_DELAY=-1",
+        "banking.sharding.shards[2].url=jdbc:h2:mem:shard-test-2;DB_CLOSE_DELAY=-1",
+        "banking.sharding.shards[2].hikari.maximum-pool-size=3",
+        "spring.datasource.hikari.maximum-pool-size=5",
+        "spring.jpa.open-in-view=false",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.show-sql=false"
+})
+class ShardedUserRepositoryTests {
+
+    @Autowired
+    private UserServiceI userService;
+
+    @Autowired
+    private ShardedUserRepository shardedUserRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoSpyBean
+    private TransferLedgerRepository ledgerRepository;
+
+    @Autowired
+    private ShardResolver shardResolver;
+
+    @Autowired
+    private TransferSaga transferSaga;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void newUsersAreStoredOnTheShardOfTheirAccountNumber() {
+        for (int i = 0; i < 6; i++) {
+            User user = newUser();
+            int shard = shardResolver.shardForAccountNumber(user.getAccountNumber());
+
+            assertThat(shardResolver.shardForUserId(user.getId())).isEqualTo(shard);
+            assertThat(ShardContext.callOn(shard, () -> userRepository.existsById(user.getId()))).isTrue();
+            assertThat(userService.findUserById(user.getId()).getAccountNumber())
+                    .isEqualTo(user.getAccountNumber());
+            assertThat(userService.findUserByAccountNumber(user.getAccountNumber()).getId())
+                    .isEqualTo(user.getId());
+        }
+    }
+
+    @Test
+    void listingGathersUsersFromEveryShard() {
+        List<User> created = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            created.add(newUser());
+        }
+
+        assertThat(userService.listAllUsers())
+                .extracting(User::getId)
+                .containsAll(created.stream().map(User::getId).toList());
+        assertThat(shardedUserRepository.existsByEmail(created.get(0).getEmail())).isTrue();
+        assertThat(shardedUserRepository.existsByCardNumber(created.get(5).getCardNumber())).isTrue();
+    }
+
+    @Test
+    void shardPoolsTakeSharedAndPerShardHikariSettings() {
+        assertThat(((ShardRoutingDataSource) dataSource).getResolvedDataSources())
+                .hasSize(3)
+                .allSatisfy((shard, pool) -> assertThat(((HikariDataSource) pool).getMaximumPoolSize())
+                        .isEqualTo(shard.equals(2) ? 3 : 5));
+    }
+
+    @Test
+    void crossShardTransferMovesMoneyAndRecordsBothLegs() {
+        User sender = newUser();
+        User recipient = newUserOnOtherShardThan(sender);
+
+        assertThat(userService.sendMoney(sender.getId(), recipient.getId(), 120)).isTrue();
+
+        assertThat(userService.findUserById(sender.getId()).getBalance()).isEqualTo(380);
+        assertThat(userService.findUserById(recipient.getId()).getBalance()).isEqualTo(620);
+
+        List<TransferLedgerEntry> debits = ShardContext.callOn(shardResolver.shardForUserId(sender.getId()),
+                () -> ledgerRepository.findAll());
+        assertThat(debits)
+                .filteredOn(entry -> entry.getUserId().equals(sender.getId()))
+                .singleElement()
+                .satisfies(entry -> {
+                    assertThat(entry.getLeg()).isEqualTo(TransferLedgerEntry.Leg.DEBIT);
+                    assertThat(entry.getStatus()).isEqualTo(TransferLedgerEntry.Status.COMMITTED);
+                });
+
+        List<TransferLedgerEntry> credits = ShardContext.callOn(shardResolver.shardForUserId(recipient.getId()),
+                () -> ledgerRepository.findAll());
+        assertThat(credits)
+                .filteredOn(entry -> entry.getUserId().equals(recipient.getId()))
+                .singleElement()
+                .satisfies(entry -> assertThat(entry.getLeg()).isEqualTo(TransferLedgerEntry.Leg.CREDIT));
+    }
+
+    @Test
+    void crossShardTransferWithInsufficientBalanceChangesNothing() {
+        User sender = newUser();
+        User recipient = newUserOnOtherShardThan(sender);
+
+        assertThat(userService.sendMoney(sender.getId(), recipient.getId(), 501)).isFalse();
+
+        assertThat(userService.findUserById(sender.getId()).getBalance()).isEqualTo(500);
+        assertThat(userService.findUserById(recipient.getId()).getBalance()).isEqualTo(500);
+    }
+
+    @Test
+    void failedCreditIsCompensated() {
+        User sender = newUser();
+        User recipient = newUserOnOtherShardThan(sender);
+        userService.deleteUser(recipient);
+
+        assertThatThrownBy(() -> userService.sendMoney(sender.getId(), recipient.getId(), 100))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Transfer could not be completed");
+
+        assertThat(userService.findUserById(sender.getId()).getBalance()).isEqualTo(500);
+        assertThat(ShardContext.callOn(shardResolver.shardForUserId(sender.getId()), () -> ledgerRepository.findAll()))
+                .filteredOn(entry -> entry.getUserId().equals(sender.getId()))
+                .singleElement()
+                .satisfies(entry -> assertThat(entry.getStatus()).isEqualTo(TransferLedgerEntry.Status.COMPENSATED));
+    }
+
+    @Test
+    void failureToCommitTheDebitLegAfterTheCreditStillCompletesTheTransfer() {
+        User sender = newUser();
+        User recipient = newUserOnOtherShardThan(sender);
+
+        doThrow(new RuntimeException("Sender shard unavailable")).when(ledgerRepository).transition(
+                anyString(), eq(TransferLedgerEntry.Status.PENDING), eq(TransferLedgerEntry.Status.COMMITTED), any());
+        try {
+            assertThat(userService.sendMoney(sender.getId(), recipient.getId(), 100)).isTrue();
+        } finally {
+            reset(ledgerRepository);
+        }
+
+        assertThat(userService.findUserById(sender.getId()).getBalance()).isEqualTo(400);
+        assertThat(userService.findUserById(recipient.getId()).getBalance()).isEqualTo(600);
+        // Left for recovery, which commits it because the credit leg exists
+        assertThat(ShardContext.callOn(shardResolver.shardForUserId(sender.getId()), () -> ledgerRepository.findAll()))
+                .filteredOn(entry -> entry.getUserId().equals(sender.getId()))
+                .singleElement()
+                .satisfies(entry -> assertThat(entry.getStatus()).isEqualTo(TransferLedgerEntry.Status.PENDING));
+    }
+
+    @Test
+    void recoveryCommitsStaleTransferWhoseCreditWasApplied() {
+        User sender = newUser();
+        User recipient = newUserOnOtherShardThan(sender);
+        String transferId = UUID.randomUUID().toString();
+
+        // Crashed after the credit, before the debit leg was committed
+        recordStaleDebit(transferId, sender, recipient, 100);
+        ShardContext.callOn(shardResolver.shardForUserId(recipient.getId()), () -> {
+            userRepository.creditBalance(recipient.getId(), 100);
+            return ledgerRepository.save(new TransferLedgerEntry(transferId, TransferLedgerEntry.Leg.CREDIT,
+                    TransferLedgerEntry.Status.COMMITTED, recipient.getId(), sender.getId(), 100));
+        });
+
+        transferSaga.recoverPendingTransfers();
+
+        assertThat(userService.findUserById(sender.getId()).getBalance()).isEqualTo(400);
+        assertThat(userService.findUserById(recipient.getId()).getBalance()).isEqualTo(600);
+        assertThat(ledgerStatus(sender, transferId, TransferLedgerEntry.Leg.DEBIT))
+                .isEqualTo(TransferLedgerEntry.Status.COMMITTED);
+        assertThat(ledgerStatus(recipient, transferId, TransferLedgerEntry.Leg.CREDIT))
+                .isEqualTo(TransferLedgerEntry.Status.COMMITTED);
+    }
+
+    @Test
+    void recoveryRefundsStaleTransferWithoutCreditOnlyOnce() {
+        User sender = newUser();
+        User recipient = newUserOnOtherShardThan(sender);
+        String transferId = UUID.randomUUID().toString();
+
+        // Crashed after the debit, before the credit
+        recordStaleDebit(transferId, sender, recipient, 100);
+
+        transferSaga.recoverPendingTransfers();
+        transferSaga.recoverPendingTransfers();
+
+        assertThat(userService.findUserById(sender.getId()).getBalance()).isEqualTo(500);
+        assertThat(userService.findUserById(recipient.getId()).getBalance()).isEqualTo(500);
+        assertThat(ledgerStatus(sender, transferId, TransferLedgerEntry.Leg.DEBIT))
+                .isEqualTo(TransferLedgerEntry.Status.COMPENSATED);
+        assertThat(ledgerStatus(recipient, transferId, TransferLedgerEntry.Leg.CREDIT))
+                .isEqualTo(TransferLedgerEntry.Status.ABORTED);
+    }
+
+    @Test
+    void shardHoldingUsersOfAnotherShardIsRefused() {
+        // A database that was used unsharded, with ids 1 and 2 handed out in sequence
+        String url = "jdbc:h2:mem:unsharded-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        DataSource existing = DataSourceBuilder.create().url(url).build();
+        Flyway.configure().dataSource(existing).locations("classpath:db/migration").load().migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(existing);
+        jdbcTemplate.update("INSERT INTO users (id, account_number, balance) VALUES (1, '100000001', 0)");
+        jdbcTemplate.update("INSERT INTO users (id, account_number, balance) VALUES (2, '100000002', 0)");
+
+        ShardingProperties.Shard shard0 = new ShardingProperties.Shard();
+        shard0.setUrl(url);
+        ShardingProperties.Shard shard1 = new ShardingProperties.Shard();
+        shard1.setUrl("jdbc:h2:mem:unsharded-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        ShardingProperties shardingProperties = new ShardingProperties();
+        shardingProperties.setEnabled(true);
+        shardingProperties.setShards(List.of(shard0, shard1));
+
+        assertThatThrownBy(() -> new ShardingConfiguration().dataSource(shardingProperties,
+                new MockEnvironment().withProperty("spring.jpa.open-in-view", "false")))
+                .rootCause()
+                .hasMessageContaining("belong to another shard");
+    }
+
+    @Test
+    void cdsTrainingRunDoesNotConnectToTheShards() throws Exception {
+        ShardingProperties.Shard unreachable = new ShardingProperties.Shard();
+        unreachable.setUrl("jdbc:postgresql://localhost:1/banking");
+        ShardingProperties shardingProperties = new ShardingProperties();
+        shardingProperties.setEnabled(true);
+        shardingProperties.setShards(List.of(unreachable));
+
+        DataSource trainingDataSource = new ShardingConfiguration().dataSource(shardingProperties,
+                new MockEnvironment()
+                        .withProperty("spring.jpa.open-in-view", "false")
+                        .withProperty("banking.cds-training-run", "true"));
+
+        assertThat(trainingDataSource).isInstanceOf(ShardRoutingDataSource.class);
+        ((ShardRoutingDataSource) trainingDataSource).close();
+    }
+
+    // Debits the sender and records a PENDING debit leg older than the recovery age
+    private void recordStaleDebit(String transferId, User sender, User recipient, int amount) {
+        TransferLedgerEntry debit = new TransferLedgerEntry(transferId, TransferLedgerEntry.Leg.DEBIT,
+                TransferLedgerEntry.Status.PENDING, sender.getId(), recipient.getId(), amount);
+        debit.setCreatedAt(Instant.now().minus(Duration.ofHours(1)));
+
+        ShardContext.callOn(shardResolver.shardForUserId(sender.getId()), () -> {
+            userRepository.debitBalance(sender.getId(), amount);
+            return ledgerRepository.save(debit);
+        });
+    }
+
+    private TransferLedgerEntry.Status ledgerStatus(User owner, String transferId, TransferLedgerEntry.Leg leg) {
+        return ShardContext.callOn(shardResolver.shardForUserId(owner.getId()),
+                        () -> ledgerRepository.findById(TransferLedgerEntry.idOf(transferId, leg)))
+                .orElseThrow()
+                .getStatus();
+    }
+
+    private User newUserOnOtherShardThan(User other) {
+        int otherShard = shardResolver.shardForUserId(other.getId());
+        User user;
+        do {
+            user = newUser();
+        } while (shardResolver.shardForUserId(user.getId()) == otherShard);
+        return user;
+    }
+
+    private User newUser() {
+        User user = new User();
+        user.setfName("Test");
+        user.setlName("User");
+        user.setPhone("5550000");
+        user.setEmail(UUID.randomUUID() + "@test.com");
+        user.setPassword("secret");
+        userService.newUser(user);
+        return user;
+    }
+}
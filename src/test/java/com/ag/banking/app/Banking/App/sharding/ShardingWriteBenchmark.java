@@ -0,0 +1,128 @@
+package com.ag.banking.app.Banking.App.sharding;
+
+import com.ag.banking.app.Banking.App.BankingAppApplication;
+import com.ag.banking.app.Banking.App.domain.User;
+import com.ag.banking.app.Banking.App.repository.ShardedUserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures user write throughput against 1, 2 and 4 shards.
+ * <p>
+ * Every shard is a separate file-based H2 database, so shards do not share a store,
+ * lock or log file. They still share this JVM, its CPUs and one disk, so the result
+ * shows how much routing writes to independent databases relieves per-database
+ * contention. It is not a measurement of shards on separate PostgreSQL hosts.
+ * <p>
+ * The connections are split evenly between the shards, so every shard count runs with
+ * the same total number of connections and only the number of databases changes.
+ * <p>
+ * Run with: ./mvnw test -Dtest=ShardingWriteBenchmark -Dbenchmark=true
+ * Results are printed and written to target/sharding-benchmark.txt.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ShardingWriteBenchmark {
+
+    private static final int CLIENTS = 32;
+    private static final int WRITES_PER_CLIENT = 500;
+    private static final int CONNECTIONS = 8;
+    private static final Path DATA_DIRECTORY = Path.of("target", "sharding-benchmark");
+    private static final Path RESULTS = Path.of("target", "sharding-benchmark.txt");
+
+    @Test
+    void writeThroughputByShardCount() throws Exception {
+        FileSystemUtils.deleteRecursively(DATA_DIRECTORY);
+
+        List<String> results = new ArrayList<>();
+        results.add(String.format("clients=%d writes=%d connections=%d cpus=%d java=%s", CLIENTS,
+                CLIENTS * WRITES_PER_CLIENT, CONNECTIONS, Runtime.getRuntime().availableProcessors(),
+                System.getProperty("java.version")));
+        double baseline = 0;
+
+        for (int shardCount : new int[]{1, 2, 4}) {
+            try (ConfigurableApplicationContext context = start(shardCount)) {
+                ShardedUserRepository repository = context.getBean(ShardedUserRepository.class);
+
+                // Warm-up so connection pools and JIT do not count against the first run
+                runWrites(repository, WRITES_PER_CLIENT / 5);
+
+                long start = System.nanoTime();
+                int writes = runWrites(repository, WRITES_PER_CLIENT);
+                double throughput = writes / ((System.nanoTime() - start) / 1_000_000_000.0);
+                if (shardCount == 1) {
+                    baseline = throughput;
+                }
+
+                results.add(String.format("shards=%d throughput=%.0f writes/s speedup=%.2fx",
+                        shardCount, throughput, throughput / baseline));
+            }
+        }
+
+        results.forEach(System.out::println);
+        Files.write(RESULTS, results);
+    }
+
+    private int runWrites(ShardedUserRepository repository, int writesPerClient) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                futures.add(clients.submit(() -> {
+                    for (int w = 0; w < writesPerClient; w++) {
+                        repository.save(randomUser());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            clients.shutdown();
+        }
+        return CLIENTS * writesPerClient;
+    }
+
+    private ConfigurableApplicationContext start(int shardCount) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--banking.sharding.enabled=true",
+                "--spring.jpa.open-in-view=false",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=none",
+                "--spring.jpa.show-sql=false"));
+        for (int shard = 0; shard < shardCount; shard++) {
+            Path file = DATA_DIRECTORY.resolve("shards-" + shardCount).resolve("shard-" + shard).toAbsolutePath();
+            args.add("--banking.sharding.shards[" + shard + "].url=jdbc:h2:file:" + file);
+            args.add("--banking.sharding.shards[" + shard + "].hikari.maximum-pool-size=" + CONNECTIONS / shardCount);
+            args.add("--banking.sharding.shards[" + shard + "].hikari.minimum-idle=" + CONNECTIONS / shardCount);
+        }
+        return new SpringApplicationBuilder(BankingAppApplication.class)
+                .run(args.toArray(String[]::new));
+    }
+
+    private User randomUser() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        User user = new User();
+        user.setfName("Bench");
+        user.setlName("User");
+        user.setEmail(random.nextLong() + "@bench.com");
+        user.setPassword("unused");
+        user.setAccountNumber(String.valueOf(100000000 + random.nextInt(900000000)));
+        user.setCardNumber(String.valueOf(random.nextLong(1_000_000_000_000_000L, 10_000_000_000_000_000L)));
+        user.setBalance(500);
+        user.setCardBalance(0);
+        return user;
+    }
+}